@@ -1,9 +1,46 @@
 package com.barberapp.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+import java.util.concurrent.Semaphore;
+
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    /**
+     * @Async executor, on virtual threads when the "virtual" profile is active.
+     *
+     * Boot's applicationTaskExecutor backs off as soon as any Executor bean
+     * exists, and the STOMP channel executors are such beans, so without this
+     * @Async would fall back to an unbounded executor.
+     * Every queue notification queries the database, so the tasks themselves
+     * wait for a permit before running; submission never blocks. A submit-side
+     * limit would park request threads that still hold a JDBC connection
+     * behind tasks that need one. Half the JDBC pool is left to requests.
+     */
+    @Bean(name = "taskExecutor")
+    public SimpleAsyncTaskExecutor taskExecutor(
+            Environment environment,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int jdbcPoolSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-");
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+
+        Semaphore permits = new Semaphore(Math.max(1, jdbcPoolSize / 2));
+        executor.setTaskDecorator(task -> () -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+        return executor;
+    }
 }
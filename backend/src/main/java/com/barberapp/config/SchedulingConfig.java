@@ -0,0 +1,48 @@
+package com.barberapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduled jobs get their own scheduler. The STOMP broker registers a
+ * messageBrokerTaskScheduler for heartbeats, which makes Boot's default
+ * scheduler back off; without this bean @Scheduled would share that
+ * single broker thread and a long slot generation run would stall heartbeats.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Value("${spring.task.scheduling.pool.size:2}")
+    private int poolSize;
+
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
+    /**
+     * Virtual-thread mode: one trigger thread, each run on its own virtual thread
+     */
+    @Bean(name = "taskScheduler")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskScheduler virtualTaskScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setVirtualThreads(true);
+        scheduler.setTaskTerminationTimeout(30_000);
+        return scheduler;
+    }
+}
@@ -1,7 +1,15 @@
 package com.barberapp.config;
 
+import com.barberapp.modules.appointment.service.QueueSubscriptionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,6 +18,15 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private QueueSubscriptionRegistry subscriptionRegistry;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int jdbcPoolSize;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/user");
@@ -22,4 +39,39 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Sends the initial window once the broker has registered a window subscription
+        registration.interceptors(subscriptionRegistry);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.taskExecutor(virtualChannelExecutor("stomp-in-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            registration.taskExecutor(virtualChannelExecutor("stomp-out-"));
+        }
+    }
+
+    /**
+     * Channel executor whose workers are virtual threads, so sends blocked on
+     * slow clients don't tie up platform threads. Default executors are kept
+     * in platform mode.
+     *
+     * Spring 6.1's ChannelRegistration only accepts a ThreadPoolTaskExecutor
+     * (a plain Executor is only possible from 6.2), so the virtual threads
+     * are pooled here. The pool is sized like the other virtual-mode limits,
+     * from the JDBC pool, rather than by a separate setting.
+     */
+    private ThreadPoolTaskExecutor virtualChannelExecutor(String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+        executor.setCorePoolSize(jdbcPoolSize);
+        executor.setMaxPoolSize(jdbcPoolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
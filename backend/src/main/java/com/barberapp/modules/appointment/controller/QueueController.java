@@ -1,11 +1,14 @@
 package com.barberapp.modules.appointment.controller;
 
+import com.barberapp.modules.appointment.dto.QueueWindow;
 import com.barberapp.modules.appointment.model.QueueEntry;
 import com.barberapp.modules.appointment.service.QueueService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +19,9 @@ public class QueueController {
     @Autowired
     private QueueService queueService;
 
+    @Value("${queue.window.size:10}")
+    private int defaultWindowSize;
+
     /**
      * Customer joins the queue
      */
@@ -72,11 +78,41 @@ public class QueueController {
     }
 
     /**
-     * Get current queue for a barber
+     * Get current queue for a barber.
+     * Returns the whole queue unless offset/limit are given.
      */
     @GetMapping
-    public ResponseEntity<List<QueueEntry>> getQueue(@RequestParam Long barberId) {
-        return ResponseEntity.ok(queueService.getQueue(barberId));
+    public ResponseEntity<List<QueueEntry>> getQueue(
+            @RequestParam Long barberId,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        if (offset == null && limit == null) {
+            return ResponseEntity.ok(queueService.getQueue(barberId));
+        }
+        try {
+            return ResponseEntity.ok(queueService.getQueue(
+                    barberId,
+                    offset == null ? 0 : offset,
+                    limit == null ? defaultWindowSize : limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * Get the head of the queue plus the customer's own entry and rank
+     */
+    @GetMapping("/window")
+    public ResponseEntity<QueueWindow> getQueueWindow(
+            @RequestParam Long barberId,
+            @RequestParam Long customerId,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(queueService.getQueueWindow(
+                    barberId, customerId, limit == null ? defaultWindowSize : limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
     }
 
     /**
@@ -98,4 +134,79 @@ public class QueueController {
             return ResponseEntity.badRequest().body(null);
         }
     }
+
+    /**
+     * Customer joins the shop-level queue (served by any free barber)
+     */
+    @PostMapping("/pool/join")
+    public ResponseEntity<QueueEntry> joinPool(@RequestParam Long customerId) {
+        try {
+            return ResponseEntity.ok(queueService.joinPool(customerId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    /**
+     * Customer leaves the shop-level queue
+     */
+    @PostMapping("/pool/cancel")
+    public ResponseEntity<String> cancelPool(@RequestParam Long customerId) {
+        try {
+            queueService.cancelPool(customerId);
+            return ResponseEntity.ok("Left the shop queue");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Barber starts taking customers from the shop-level queue
+     */
+    @PostMapping("/pool/barbers/available")
+    public ResponseEntity<String> barberAvailable(@RequestParam Long barberId) {
+        try {
+            queueService.barberAvailable(barberId);
+            return ResponseEntity.ok("Barber available");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Barber stops taking customers from the shop-level queue
+     */
+    @PostMapping("/pool/barbers/unavailable")
+    public ResponseEntity<String> barberUnavailable(@RequestParam Long barberId) {
+        queueService.barberUnavailable(barberId);
+        return ResponseEntity.ok("Barber unavailable");
+    }
+
+    /**
+     * Get waiting customers in the shop-level queue
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<List<QueueEntry>> getPool() {
+        return ResponseEntity.ok(queueService.getPool());
+    }
+
+    /**
+     * Get a pooled customer's status and estimated wait time
+     */
+    @GetMapping("/pool/position")
+    public ResponseEntity<Map<String, Object>> getPoolPosition(@RequestParam Long customerId) {
+        try {
+            QueueEntry entry = queueService.getPoolPosition(customerId);
+            int waitTime = queueService.calculatePoolWaitTime(customerId);
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("position", queueService.getPoolRank(entry));
+            body.put("status", entry.getStatus());
+            body.put("barberId", entry.getBarberId()); // null until dispatched
+            body.put("estimatedWaitTime", waitTime);
+            return ResponseEntity.ok(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
 }
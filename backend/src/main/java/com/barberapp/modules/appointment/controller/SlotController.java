@@ -1,6 +1,7 @@
 package com.barberapp.modules.appointment.controller;
 
 import com.barberapp.modules.appointment.model.Slot;
+import com.barberapp.modules.appointment.model.WorkingHours;
 import com.barberapp.modules.appointment.service.SlotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -43,4 +44,21 @@ public class SlotController {
             return ResponseEntity.badRequest().body(null); // Simple error handling for now
         }
     }
+
+    /**
+     * Add a working-hour template used by the rolling slot generation job
+     */
+    @PostMapping("/working-hours")
+    public ResponseEntity<WorkingHours> addWorkingHours(@RequestBody WorkingHours workingHours) {
+        try {
+            return ResponseEntity.ok(slotService.saveWorkingHours(workingHours));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    @GetMapping("/working-hours")
+    public ResponseEntity<List<WorkingHours>> getWorkingHours(@RequestParam Long barberId) {
+        return ResponseEntity.ok(slotService.getWorkingHours(barberId));
+    }
 }
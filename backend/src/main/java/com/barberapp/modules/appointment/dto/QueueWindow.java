@@ -0,0 +1,25 @@
+package com.barberapp.modules.appointment.dto;
+
+import com.barberapp.modules.appointment.model.QueueEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Windowed view of a barber's queue for a single customer:
+ * the head of the line plus the customer's own entry and rank.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueWindow {
+    private Long barberId;
+    private Long customerId;
+    private List<QueueEntry> head; // first N active entries
+    private QueueEntry self; // null if customer is not in the active queue
+    private Integer rank; // 1-based rank among active entries, null if not active
+    private int activeCount; // WAITING + IN_PROGRESS entries
+    private int estimatedWaitTime; // minutes, same rule as GET /api/queue/position
+}
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class QueueUpdatedEvent {
-    private Long barberId;
+    private Long barberId; // null for shop-level (pooled) queue changes
     private Long customerId;
-    private String actionType; // JOIN, CANCEL, COMPLETE, NO_SHOW
+    private String actionType; // JOIN, CANCEL, COMPLETE, NO_SHOW, ADVANCE, DISPATCH
 }
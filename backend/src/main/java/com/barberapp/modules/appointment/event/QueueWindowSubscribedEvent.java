@@ -0,0 +1,17 @@
+package com.barberapp.modules.appointment.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A customer's window subscription is registered with the broker
+ * and can receive its initial window
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueWindowSubscribedEvent {
+    private Long barberId;
+    private Long customerId;
+}
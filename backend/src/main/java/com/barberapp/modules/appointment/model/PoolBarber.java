@@ -0,0 +1,21 @@
+package com.barberapp.modules.appointment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Barber taking customers from the shop-level ("any barber") queue.
+ * Persisted so pool membership survives a restart.
+ */
+@Entity
+@Table(name = "pool_barbers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PoolBarber {
+
+    @Id
+    private Long barberId;
+}
@@ -20,7 +20,8 @@ public class QueueEntry {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    // Null while a pooled ("any barber") entry is still waiting for dispatch
+    @Column
     private Long barberId;
 
     @Column(nullable = false)
@@ -33,6 +34,10 @@ public class QueueEntry {
     @Column(nullable = false)
     private QueueStatus status;
 
+    // Joined the shop-level queue instead of a specific barber's queue
+    @Column(nullable = false)
+    private boolean pooled;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
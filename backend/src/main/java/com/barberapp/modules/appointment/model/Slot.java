@@ -9,6 +9,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "slots", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"barberId", "startTime"})
+}, indexes = {
+    @Index(columnList = "status,endTime") // expired-slot purge
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,31 @@
+package com.barberapp.modules.appointment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Last day for which a barber's slots have been fully generated by the
+ * run started on {@code runDate}. Updated in the same transaction as the
+ * day's slots, so a restarted run resumes from the first incomplete day;
+ * the next day's run walks the whole horizon again.
+ */
+@Entity
+@Table(name = "slot_generation_progress")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotGenerationProgress {
+
+    @Id
+    private Long barberId;
+
+    @Column(nullable = false)
+    private LocalDate generatedThrough;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+}
@@ -0,0 +1,43 @@
+package com.barberapp.modules.appointment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Weekly working-hour template for a barber.
+ * A barber may have several rows per day (e.g. split shifts).
+ */
+@Entity
+@Table(name = "working_hours", indexes = {
+    @Index(columnList = "barberId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkingHours {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long barberId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private Integer slotDurationMinutes;
+}
@@ -0,0 +1,25 @@
+package com.barberapp.modules.appointment.repository;
+
+import com.barberapp.modules.appointment.model.PoolBarber;
+import com.barberapp.modules.appointment.model.QueueStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PoolBarberRepository extends JpaRepository<PoolBarber, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PoolBarber p WHERE p.barberId = :barberId")
+    Optional<PoolBarber> findByIdWithLock(@Param("barberId") Long barberId);
+
+    // Pool barbers with nobody waiting in their own queue, i.e. the ones that actually take pooled customers
+    @Query("SELECT COUNT(p) FROM PoolBarber p WHERE NOT EXISTS "
+            + "(SELECT q.id FROM QueueEntry q WHERE q.barberId = p.barberId AND q.status = :status)")
+    long countWithEmptyOwnQueue(@Param("status") QueueStatus status);
+}
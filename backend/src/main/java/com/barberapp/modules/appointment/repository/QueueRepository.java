@@ -2,11 +2,15 @@ package com.barberapp.modules.appointment.repository;
 
 import com.barberapp.modules.appointment.model.QueueEntry;
 import com.barberapp.modules.appointment.model.QueueStatus;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +21,31 @@ public interface QueueRepository extends JpaRepository<QueueEntry, Long> {
 
     List<QueueEntry> findByBarberIdOrderByPositionAsc(Long barberId);
 
-    Optional<QueueEntry> findByBarberIdAndCustomerId(Long barberId, Long customerId);
+    List<QueueEntry> findByBarberIdAndStatusInOrderByPositionAsc(Long barberId, Collection<QueueStatus> statuses);
+
+    List<QueueEntry> findByBarberIdAndStatusInOrderByPositionAsc(
+            Long barberId, Collection<QueueStatus> statuses, Pageable pageable);
+
+    // Pooled entries are excluded: a customer may have been dispatched to this barber before
+    Optional<QueueEntry> findByBarberIdAndCustomerIdAndPooledFalse(Long barberId, Long customerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT q FROM QueueEntry q WHERE q.barberId = :barberId AND q.status = :status ORDER BY q.position")
+    List<QueueEntry> findByBarberIdAndStatusWithLock(
+            @Param("barberId") Long barberId,
+            @Param("status") QueueStatus status);
+
+    boolean existsByCustomerIdAndStatusIn(Long customerId, Collection<QueueStatus> statuses);
 
     @Query("SELECT MAX(q.position) FROM QueueEntry q WHERE q.barberId = :barberId")
     Integer findMaxPositionByBarberId(@Param("barberId") Long barberId);
 
     List<QueueEntry> findByBarberIdAndPositionGreaterThan(Long barberId, Integer position);
+
+    List<QueueEntry> findByPooledTrueAndStatusOrderByPositionAsc(QueueStatus status);
+
+    Optional<QueueEntry> findFirstByCustomerIdAndPooledTrueAndStatusIn(Long customerId, Collection<QueueStatus> statuses);
+
+    @Query("SELECT MAX(q.position) FROM QueueEntry q WHERE q.pooled = true AND q.barberId IS NULL")
+    Integer findMaxPooledPosition();
 }
@@ -0,0 +1,9 @@
+package com.barberapp.modules.appointment.repository;
+
+import com.barberapp.modules.appointment.model.SlotGenerationProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SlotGenerationProgressRepository extends JpaRepository<SlotGenerationProgress, Long> {
+}
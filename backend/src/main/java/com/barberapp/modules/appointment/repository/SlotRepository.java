@@ -1,8 +1,10 @@
 package com.barberapp.modules.appointment.repository;
 
 import com.barberapp.modules.appointment.model.Slot;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,4 +22,15 @@ public interface SlotRepository extends JpaRepository<Slot, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT s FROM Slot s WHERE s.id = :id")
     Optional<Slot> findByIdWithLock(@Param("id") Long id);
+
+    @Query("SELECT s.id FROM Slot s WHERE s.status = :status AND s.endTime < :cutoff ORDER BY s.id")
+    List<Long> findIdsByStatusAndEndTimeBefore(
+            @Param("status") Slot.SlotStatus status,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
+    // Status is re-checked so a slot booked after the id scan is never deleted
+    @Modifying
+    @Query("DELETE FROM Slot s WHERE s.id IN :ids AND s.status = :status")
+    int deleteByIdInAndStatus(@Param("ids") List<Long> ids, @Param("status") Slot.SlotStatus status);
 }
@@ -0,0 +1,17 @@
+package com.barberapp.modules.appointment.repository;
+
+import com.barberapp.modules.appointment.model.WorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WorkingHoursRepository extends JpaRepository<WorkingHours, Long> {
+
+    List<WorkingHours> findByBarberId(Long barberId);
+
+    @Query("SELECT DISTINCT w.barberId FROM WorkingHours w")
+    List<Long> findDistinctBarberIds();
+}
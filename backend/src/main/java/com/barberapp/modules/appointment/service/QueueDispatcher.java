@@ -0,0 +1,226 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.model.QueueEntry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory dispatcher for the shop-level "any barber" queue.
+ *
+ * Keeps waiting pooled customers ordered by pool position and the set of
+ * idle pool barbers, so pairing the next customer with a freed barber is
+ * O(log n) instead of a scan. All state changes happen under one lock,
+ * which makes concurrent completes hand out distinct customers.
+ *
+ * The database stays the source of truth: {@link QueueService} rebuilds
+ * this state on startup from waiting pooled entries and the pool_barbers
+ * table, and only adds tickets for committed entries. Single-node only.
+ */
+@Component
+public class QueueDispatcher {
+
+    /**
+     * A waiting pooled customer, enough to put them back after a rollback
+     */
+    public record Ticket(Integer position, Long entryId) {
+    }
+
+    private static final Comparator<Ticket> ORDER = Comparator
+            .comparing(Ticket::position)
+            .thenComparing(Ticket::entryId);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final TreeSet<Ticket> waiting = new TreeSet<>(ORDER);
+    private final Map<Long, Ticket> ticketsByEntryId = new HashMap<>();
+
+    // Idle barbers in the order they became free (longest idle served first)
+    private final LinkedHashSet<Long> freeBarbers = new LinkedHashSet<>();
+
+    // Barbers currently taking pooled customers, busy or not
+    private final Set<Long> poolBarbers = new HashSet<>();
+
+    /**
+     * Replaces all state with the given waiting entries and pool barbers.
+     * No barber starts out idle; the caller dispatches idle barbers afterwards.
+     */
+    public void rebuild(List<QueueEntry> waitingEntries, Collection<Long> barberIds) {
+        lock.lock();
+        try {
+            waiting.clear();
+            ticketsByEntryId.clear();
+            freeBarbers.clear();
+            poolBarbers.clear();
+            waitingEntries.forEach(entry -> addTicket(ticketOf(entry)));
+            poolBarbers.addAll(barberIds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A committed pooled customer joined: returns the idle barber to assign
+     * them to, or queues the customer if every pool barber is busy.
+     */
+    public Optional<Long> offerCustomer(QueueEntry entry) {
+        lock.lock();
+        try {
+            Long barberId = pollFirst(freeBarbers);
+            if (barberId != null) {
+                return Optional.of(barberId);
+            }
+            addTicket(ticketOf(entry));
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A pool barber became free: returns the customer they should take next,
+     * or marks the barber idle if nobody is waiting.
+     */
+    public Optional<Ticket> offerBarber(Long barberId) {
+        lock.lock();
+        try {
+            poolBarbers.add(barberId);
+            Ticket next = waiting.pollFirst();
+            if (next != null) {
+                ticketsByEntryId.remove(next.entryId());
+                freeBarbers.remove(barberId);
+                return Optional.of(next);
+            }
+            freeBarbers.add(barberId);
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a barber as taking pooled customers once they are free
+     */
+    public void addPoolBarber(Long barberId) {
+        lock.lock();
+        try {
+            poolBarbers.add(barberId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes an idle barber out of the free set, e.g. because a customer
+     * joined their own queue. Returns false if the barber was not idle.
+     */
+    public boolean claimBarber(Long barberId) {
+        lock.lock();
+        try {
+            return freeBarbers.remove(barberId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts a barber back into the free set without dispatching
+     */
+    public void releaseBarber(Long barberId) {
+        lock.lock();
+        try {
+            if (poolBarbers.contains(barberId)) {
+                freeBarbers.add(barberId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Barber stops taking pooled customers
+     */
+    public void removeBarber(Long barberId) {
+        lock.lock();
+        try {
+            poolBarbers.remove(barberId);
+            freeBarbers.remove(barberId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isPoolBarber(Long barberId) {
+        lock.lock();
+        try {
+            return poolBarbers.contains(barberId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts a customer (back) into the waiting set
+     */
+    public void addCustomer(Ticket ticket) {
+        lock.lock();
+        try {
+            addTicket(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean removeCustomer(Long entryId) {
+        lock.lock();
+        try {
+            Ticket ticket = ticketsByEntryId.remove(entryId);
+            return ticket != null && waiting.remove(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of pooled customers ahead of the given entry, or -1 if it is not waiting.
+     * O(rank): TreeSet views don't track their size. Only used for ETA reads,
+     * never on the dispatch path.
+     */
+    public int customersAhead(Long entryId) {
+        lock.lock();
+        try {
+            Ticket ticket = ticketsByEntryId.get(entryId);
+            return ticket == null ? -1 : waiting.headSet(ticket).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static Ticket ticketOf(QueueEntry entry) {
+        return new Ticket(entry.getPosition(), entry.getId());
+    }
+
+    private void addTicket(Ticket ticket) {
+        ticketsByEntryId.put(ticket.entryId(), ticket);
+        waiting.add(ticket);
+    }
+
+    private static Long pollFirst(LinkedHashSet<Long> set) {
+        if (set.isEmpty()) {
+            return null;
+        }
+        Long first = set.iterator().next();
+        set.remove(first);
+        return first;
+    }
+}
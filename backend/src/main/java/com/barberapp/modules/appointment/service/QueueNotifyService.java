@@ -1,14 +1,19 @@
 package com.barberapp.modules.appointment.service;
 
+import com.barberapp.modules.appointment.dto.QueueWindow;
 import com.barberapp.modules.appointment.event.QueueUpdatedEvent;
+import com.barberapp.modules.appointment.event.QueueWindowSubscribedEvent;
 import com.barberapp.modules.appointment.model.QueueEntry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class QueueNotifyService {
@@ -19,19 +24,35 @@ public class QueueNotifyService {
     @Autowired
     private QueueService queueService;
 
+    @Autowired
+    private QueueSubscriptionRegistry subscriptionRegistry;
+
+    @Value("${queue.window.size:10}")
+    private int windowSize;
+
     /**
-     * Listen for queue update events and broadcast to WebSocket clients
+     * Listen for queue update events and broadcast to WebSocket clients.
+     * Runs after commit, so the broadcast never reads a queue that is still
+     * being changed (or rolled back).
      */
     @Async
-    @EventListener
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleQueueUpdate(QueueUpdatedEvent event) {
-        // Fetch latest queue state
-        List<QueueEntry> queue = queueService.getQueue(event.getBarberId());
+        if (event.getBarberId() == null) {
+            // Shop-level (pooled) queue changes have no barber
+            messagingTemplate.convertAndSend("/topic/pool", queueService.getPool());
+        } else {
+            // Fetch latest queue state
+            List<QueueEntry> queue = queueService.getQueue(event.getBarberId());
 
-        // Broadcast to all clients subscribed to this barber's queue
-        messagingTemplate.convertAndSend(
-                "/topic/barber/" + event.getBarberId(),
-                queue);
+            // Broadcast to all clients subscribed to this barber's queue
+            messagingTemplate.convertAndSend(
+                    "/topic/barber/" + event.getBarberId(),
+                    queue);
+
+            // Windowed views: one rank snapshot per event, then O(window) per subscribed customer
+            broadcastWindows(event.getBarberId());
+        }
 
         // Also send personalized notification to the affected customer
         if (event.getCustomerId() != null) {
@@ -41,4 +62,35 @@ public class QueueNotifyService {
                     event);
         }
     }
+
+    /**
+     * Send the current window to a customer who just subscribed, so updates
+     * between their initial GET and the SUBSCRIBE are not lost
+     */
+    @Async
+    @EventListener
+    public void handleWindowSubscribe(QueueWindowSubscribedEvent event) {
+        QueueWindow window = queueService.getRankIndex(event.getBarberId())
+                .windowFor(event.getCustomerId(), windowSize);
+        messagingTemplate.convertAndSend(
+                QueueSubscriptionRegistry.windowDestination(event.getBarberId(), event.getCustomerId()),
+                window);
+    }
+
+    private void broadcastWindows(Long barberId) {
+        Set<Long> customers = subscriptionRegistry.getSubscribedCustomers(barberId);
+        if (customers.isEmpty()) {
+            return;
+        }
+
+        QueueRankIndex index = queueService.getRankIndex(barberId);
+        List<QueueEntry> head = index.head(windowSize);
+
+        for (Long customerId : customers) {
+            QueueWindow window = index.windowFor(customerId, head);
+            messagingTemplate.convertAndSend(
+                    QueueSubscriptionRegistry.windowDestination(barberId, customerId),
+                    window);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.dto.QueueWindow;
+import com.barberapp.modules.appointment.model.QueueEntry;
+import com.barberapp.modules.appointment.model.QueueStatus;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a barber's active queue (WAITING + IN_PROGRESS),
+ * ordered by position, with an O(1) customer -> rank lookup.
+ *
+ * Built once per queue event so that every per-customer window costs
+ * O(window) instead of another scan or query of the whole queue.
+ */
+public class QueueRankIndex {
+
+    private final Long barberId;
+    private final List<QueueEntry> active;
+    private final Map<Long, Integer> rankByCustomer;
+
+    // WAITING entries before each index, for O(1) wait estimates
+    private final int[] waitingBefore;
+
+    public QueueRankIndex(Long barberId, List<QueueEntry> activeOrdered) {
+        this.barberId = barberId;
+        this.active = List.copyOf(activeOrdered);
+        this.rankByCustomer = new HashMap<>(active.size() * 2);
+        this.waitingBefore = new int[active.size()];
+        int waiting = 0;
+        for (int i = 0; i < active.size(); i++) {
+            rankByCustomer.put(active.get(i).getCustomerId(), i);
+            waitingBefore[i] = waiting;
+            if (active.get(i).getStatus() == QueueStatus.WAITING) {
+                waiting++;
+            }
+        }
+    }
+
+    public int size() {
+        return active.size();
+    }
+
+    /**
+     * First {@code n} active entries
+     */
+    public List<QueueEntry> head(int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        return active.subList(0, Math.min(n, active.size()));
+    }
+
+    /**
+     * 1-based rank of the customer, or null if not in the active queue
+     */
+    public Integer rankOf(Long customerId) {
+        Integer index = rankByCustomer.get(customerId);
+        return index == null ? null : index + 1;
+    }
+
+    /**
+     * Window for one customer, sharing the given head list
+     */
+    public QueueWindow windowFor(Long customerId, List<QueueEntry> head) {
+        Integer index = rankByCustomer.get(customerId);
+        QueueEntry self = index == null ? null : active.get(index);
+        Integer rank = index == null ? null : index + 1;
+        int waitTime = index == null ? 0 : waitingBefore[index] * QueueService.AVG_SERVICE_DURATION;
+        return new QueueWindow(barberId, customerId, head, self, rank, active.size(), waitTime);
+    }
+
+    public QueueWindow windowFor(Long customerId, int windowSize) {
+        return windowFor(customerId, head(windowSize));
+    }
+}
@@ -1,35 +1,71 @@
 package com.barberapp.modules.appointment.service;
 
+import com.barberapp.modules.appointment.dto.QueueWindow;
 import com.barberapp.modules.appointment.event.QueueUpdatedEvent;
+import com.barberapp.modules.appointment.model.PoolBarber;
 import com.barberapp.modules.appointment.model.QueueEntry;
 import com.barberapp.modules.appointment.model.QueueStatus;
+import com.barberapp.modules.appointment.repository.OffsetLimitRequest;
+import com.barberapp.modules.appointment.repository.PoolBarberRepository;
 import com.barberapp.modules.appointment.repository.QueueRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+@Slf4j
 @Service
 public class QueueService {
 
+    // Upper bound for a single page/window so one request can't pull the whole queue
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<QueueStatus> ACTIVE_STATUSES = EnumSet.of(QueueStatus.IN_PROGRESS, QueueStatus.WAITING);
+
+    // Average service duration in minutes (can be configurable)
+    static final int AVG_SERVICE_DURATION = 30;
+
     @Autowired
     private QueueRepository queueRepository;
 
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private QueueDispatcher dispatcher;
+
+    @Autowired
+    private PoolBarberRepository poolBarberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
      * Customer joins the queue for a specific barber
      */
     @Transactional
     public QueueEntry joinQueue(Long barberId, Long customerId) {
         // Check if customer is already in queue
-        queueRepository.findByBarberIdAndCustomerId(barberId, customerId)
+        queueRepository.findByBarberIdAndCustomerIdAndPooledFalse(barberId, customerId)
                 .ifPresent(entry -> {
                     throw new RuntimeException("Customer already in queue");
                 });
+        if (queueRepository.findFirstByCustomerIdAndPooledTrueAndStatusIn(customerId, ACTIVE_STATUSES).isPresent()) {
+            throw new RuntimeException("Customer already in the shop queue");
+        }
 
         // Get next position
         Integer maxPosition = queueRepository.findMaxPositionByBarberId(barberId);
@@ -46,6 +82,14 @@ public class QueueService {
         // Publish event for WebSocket notification
         eventPublisher.publishEvent(new QueueUpdatedEvent(barberId, customerId, "JOIN"));
 
+        // An idle pool barber serves their own customer straight away
+        if (dispatcher.claimBarber(barberId)) {
+            onRollback(() -> dispatcher.releaseBarber(barberId));
+            if (lockFreePoolBarber(barberId)) {
+                advanceQueue(barberId);
+            }
+        }
+
         return saved;
     }
 
@@ -54,7 +98,7 @@ public class QueueService {
      */
     @Transactional
     public void cancelSlot(Long barberId, Long customerId) {
-        QueueEntry entry = queueRepository.findByBarberIdAndCustomerId(barberId, customerId)
+        QueueEntry entry = queueRepository.findByBarberIdAndCustomerIdAndPooledFalse(barberId, customerId)
                 .orElseThrow(() -> new RuntimeException("Queue entry not found"));
 
         int cancelledPosition = entry.getPosition();
@@ -81,14 +125,7 @@ public class QueueService {
      */
     @Transactional
     public void completeCurrentCustomer(Long barberId) {
-        List<QueueEntry> queue = queueRepository
-                .findByBarberIdAndStatusOrderByPositionAsc(barberId, QueueStatus.IN_PROGRESS);
-
-        if (queue.isEmpty()) {
-            throw new RuntimeException("No customer in progress");
-        }
-
-        QueueEntry current = queue.get(0);
+        QueueEntry current = lockCurrentCustomer(barberId);
         current.setStatus(QueueStatus.COMPLETED);
         queueRepository.save(current);
 
@@ -104,14 +141,7 @@ public class QueueService {
      */
     @Transactional
     public void markNoShow(Long barberId) {
-        List<QueueEntry> queue = queueRepository
-                .findByBarberIdAndStatusOrderByPositionAsc(barberId, QueueStatus.IN_PROGRESS);
-
-        if (queue.isEmpty()) {
-            throw new RuntimeException("No customer in progress");
-        }
-
-        QueueEntry current = queue.get(0);
+        QueueEntry current = lockCurrentCustomer(barberId);
         current.setStatus(QueueStatus.NO_SHOW);
         queueRepository.save(current);
 
@@ -123,7 +153,8 @@ public class QueueService {
     }
 
     /**
-     * Advance the queue - move next WAITING customer to IN_PROGRESS
+     * Advance the queue - move next WAITING customer to IN_PROGRESS.
+     * Pool barbers with nobody in their own queue take the next pooled customer.
      */
     private void advanceQueue(Long barberId) {
         List<QueueEntry> waiting = queueRepository
@@ -136,7 +167,277 @@ public class QueueService {
 
             // Publish event
             eventPublisher.publishEvent(new QueueUpdatedEvent(barberId, next.getCustomerId(), "ADVANCE"));
+        } else if (dispatcher.isPoolBarber(barberId)) {
+            dispatchToBarber(barberId);
+        }
+    }
+
+    /**
+     * Locks the barber's IN_PROGRESS row so concurrent completes / no-shows
+     * for the same barber run one after the other and dispatch only once
+     */
+    private QueueEntry lockCurrentCustomer(Long barberId) {
+        return queueRepository.findByBarberIdAndStatusWithLock(barberId, QueueStatus.IN_PROGRESS).stream()
+                // Re-check after the lock wait: a concurrent complete may have finished this row
+                .filter(entry -> entry.getStatus() == QueueStatus.IN_PROGRESS)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("No customer in progress"));
+    }
+
+    /**
+     * Customer joins the shop-level queue and is served by the first free barber
+     */
+    @Transactional
+    public QueueEntry joinPool(Long customerId) {
+        if (queueRepository.existsByCustomerIdAndStatusIn(customerId, ACTIVE_STATUSES)) {
+            throw new RuntimeException("Customer already in queue");
+        }
+
+        Integer maxPosition = queueRepository.findMaxPooledPosition();
+        int nextPosition = (maxPosition == null) ? 1 : maxPosition + 1;
+
+        QueueEntry entry = new QueueEntry();
+        entry.setCustomerId(customerId);
+        entry.setPosition(nextPosition);
+        entry.setStatus(QueueStatus.WAITING);
+        entry.setPooled(true);
+
+        QueueEntry saved = queueRepository.save(entry);
+        eventPublisher.publishEvent(new QueueUpdatedEvent(null, customerId, "JOIN"));
+
+        // Only committed rows reach the dispatcher, so a barber can never take a ticket it can't load
+        afterCommit(() -> dispatcher.offerCustomer(saved)
+                .ifPresent(barberId -> assignAfterCommit(saved, barberId)));
+
+        return saved;
+    }
+
+    /**
+     * Customer leaves the shop-level queue before being dispatched
+     */
+    @Transactional
+    public void cancelPool(Long customerId) {
+        QueueEntry entry = queueRepository
+                .findFirstByCustomerIdAndPooledTrueAndStatusIn(customerId, EnumSet.of(QueueStatus.WAITING))
+                .orElseThrow(() -> new RuntimeException("Queue entry not found"));
+
+        QueueDispatcher.Ticket ticket = QueueDispatcher.ticketOf(entry);
+        if (!dispatcher.removeCustomer(entry.getId())) {
+            throw new RuntimeException("Customer already assigned to a barber");
+        }
+        onRollback(() -> dispatcher.addCustomer(ticket));
+
+        entry.setStatus(QueueStatus.COMPLETED);
+        queueRepository.save(entry);
+
+        eventPublisher.publishEvent(new QueueUpdatedEvent(null, customerId, "CANCEL"));
+    }
+
+    /**
+     * Barber starts taking pooled customers. A busy barber is registered and
+     * picks up pooled customers once their current customer and own queue are done.
+     */
+    @Transactional
+    public void barberAvailable(Long barberId) {
+        // Membership row doubles as the per-barber lock for availability changes
+        if (poolBarberRepository.findByIdWithLock(barberId).isEmpty()) {
+            poolBarberRepository.saveAndFlush(new PoolBarber(barberId));
+        }
+        if (!dispatcher.isPoolBarber(barberId)) {
+            dispatcher.addPoolBarber(barberId);
+            onRollback(() -> dispatcher.removeBarber(barberId));
+        }
+
+        resumeBarber(barberId);
+    }
+
+    /**
+     * Barber stops taking pooled customers
+     */
+    @Transactional
+    public void barberUnavailable(Long barberId) {
+        poolBarberRepository.deleteById(barberId);
+        dispatcher.removeBarber(barberId);
+        onRollback(() -> dispatcher.addPoolBarber(barberId));
+    }
+
+    /**
+     * Reloads the dispatcher from the database and lets idle pool barbers
+     * pick up waiting customers
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePool() {
+        List<Long> barberIds = poolBarberRepository.findAll().stream()
+                .map(PoolBarber::getBarberId)
+                .toList();
+        dispatcher.rebuild(queueRepository.findByPooledTrueAndStatusOrderByPositionAsc(QueueStatus.WAITING), barberIds);
+
+        for (Long barberId : barberIds) {
+            requiresNew().executeWithoutResult(status -> resumeBarber(barberId));
+        }
+    }
+
+    /**
+     * Gives an idle pool barber work: own queue first, then the shop-level queue.
+     * Busy barbers are left alone; they are dispatched on their next complete.
+     */
+    private void resumeBarber(Long barberId) {
+        if (!queueRepository.findByBarberIdAndStatusOrderByPositionAsc(barberId, QueueStatus.IN_PROGRESS).isEmpty()) {
+            return;
+        }
+        advanceQueue(barberId);
+    }
+
+    /**
+     * Waiting customers in the shop-level queue
+     */
+    public List<QueueEntry> getPool() {
+        return queueRepository.findByPooledTrueAndStatusOrderByPositionAsc(QueueStatus.WAITING);
+    }
+
+    public QueueEntry getPoolPosition(Long customerId) {
+        return queueRepository.findFirstByCustomerIdAndPooledTrueAndStatusIn(customerId, ACTIVE_STATUSES)
+                .orElseThrow(() -> new RuntimeException("Customer not in queue"));
+    }
+
+    /**
+     * 1-based place in the shop-level queue. Stored pool positions only
+     * order entries (numbering restarts once the pool drains), so the rank
+     * comes from the dispatcher. A dispatched customer is at the chair: 1.
+     */
+    public int getPoolRank(QueueEntry entry) {
+        if (entry.getStatus() != QueueStatus.WAITING) {
+            return 1;
+        }
+        // -1 while the entry is being handed to a barber
+        return Math.max(0, dispatcher.customersAhead(entry.getId())) + 1;
+    }
+
+    /**
+     * Estimated wait for a pooled customer, using the combined service rate
+     * of the pool barbers that actually take pooled customers (empty own queue)
+     */
+    public int calculatePoolWaitTime(Long customerId) {
+        QueueEntry entry = getPoolPosition(customerId);
+        int customersAhead = dispatcher.customersAhead(entry.getId());
+        if (customersAhead <= 0) {
+            return 0;
+        }
+
+        long barbers = Math.max(1, poolBarberRepository.countWithEmptyOwnQueue(QueueStatus.WAITING));
+        return (int) Math.ceil((double) customersAhead * AVG_SERVICE_DURATION / barbers);
+    }
+
+    /**
+     * Hand the next pooled customer to a free barber, or mark the barber idle
+     */
+    private void dispatchToBarber(Long barberId) {
+        Optional<QueueDispatcher.Ticket> next = dispatcher.offerBarber(barberId);
+        if (next.isEmpty()) {
+            onRollback(() -> dispatcher.claimBarber(barberId));
+            return;
+        }
+
+        // Registered before the lookup so a failed lookup still puts the customer back
+        QueueDispatcher.Ticket ticket = next.get();
+        onRollback(() -> dispatcher.addCustomer(ticket));
+
+        QueueEntry entry = queueRepository.findById(ticket.entryId())
+                .orElseThrow(() -> new RuntimeException("Queue entry not found"));
+        assign(entry, barberId);
+    }
+
+    /**
+     * Assigns a just-committed pooled entry to the free barber it was matched with.
+     * If the barber took other work or left the pool before the lock was
+     * acquired, the customer is offered to the next idle barber instead.
+     */
+    private void assignAfterCommit(QueueEntry entry, Long barberId) {
+        boolean assigned;
+        try {
+            assigned = Boolean.TRUE.equals(requiresNew().execute(status -> {
+                if (!lockFreePoolBarber(barberId)) {
+                    return false;
+                }
+                assign(queueRepository.findById(entry.getId())
+                        .orElseThrow(() -> new RuntimeException("Queue entry not found")), barberId);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            log.error("Dispatching pooled entry {} to barber {} failed", entry.getId(), barberId, e);
+            dispatcher.addCustomer(QueueDispatcher.ticketOf(entry));
+            dispatcher.releaseBarber(barberId);
+            return;
+        }
+
+        if (!assigned) {
+            dispatcher.offerCustomer(entry).ifPresent(next -> assignAfterCommit(entry, next));
+        }
+    }
+
+    /**
+     * Takes the barber's pool membership row lock (the same lock availability
+     * changes hold) and checks the barber is still in the pool with nobody in
+     * the chair. Without it, a resume racing a dispatch could seat two customers.
+     */
+    private boolean lockFreePoolBarber(Long barberId) {
+        return poolBarberRepository.findByIdWithLock(barberId).isPresent()
+                && queueRepository.findByBarberIdAndStatusOrderByPositionAsc(barberId, QueueStatus.IN_PROGRESS).isEmpty();
+    }
+
+    /**
+     * Moves a pooled entry into the barber's queue. The barber's own queue is
+     * empty at this point, so the next barber-local position keeps it in order.
+     */
+    private void assign(QueueEntry entry, Long barberId) {
+        Integer maxPosition = queueRepository.findMaxPositionByBarberId(barberId);
+
+        entry.setBarberId(barberId);
+        entry.setPosition((maxPosition == null) ? 1 : maxPosition + 1);
+        entry.setStatus(QueueStatus.IN_PROGRESS);
+        queueRepository.save(entry);
+
+        eventPublisher.publishEvent(new QueueUpdatedEvent(barberId, entry.getCustomerId(), "ADVANCE"));
+        eventPublisher.publishEvent(new QueueUpdatedEvent(null, entry.getCustomerId(), "DISPATCH"));
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Undo an in-memory dispatcher change if the surrounding transaction rolls back
+     */
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run a dispatcher change once the surrounding transaction has committed
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
@@ -146,11 +447,38 @@ public class QueueService {
         return queueRepository.findByBarberIdOrderByPositionAsc(barberId);
     }
 
+    /**
+     * Get a page of the active queue (WAITING + IN_PROGRESS) for a barber.
+     * Same ordering as {@link QueueRankIndex}, so rank r is at offset r - 1.
+     */
+    public List<QueueEntry> getQueue(Long barberId, int offset, int limit) {
+        return queueRepository.findByBarberIdAndStatusInOrderByPositionAsc(
+                barberId, ACTIVE_STATUSES, new OffsetLimitRequest(offset, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Snapshot of the active queue with customer ranks, used for windowed views
+     */
+    public QueueRankIndex getRankIndex(Long barberId) {
+        return new QueueRankIndex(barberId,
+                queueRepository.findByBarberIdAndStatusInOrderByPositionAsc(barberId, ACTIVE_STATUSES));
+    }
+
+    /**
+     * Get the head of the queue plus the customer's own entry and rank
+     */
+    public QueueWindow getQueueWindow(Long barberId, Long customerId, int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1");
+        }
+        return getRankIndex(barberId).windowFor(customerId, Math.min(windowSize, MAX_PAGE_SIZE));
+    }
+
     /**
      * Get queue position for a specific customer
      */
     public QueueEntry getCustomerPosition(Long barberId, Long customerId) {
-        return queueRepository.findByBarberIdAndCustomerId(barberId, customerId)
+        return queueRepository.findByBarberIdAndCustomerIdAndPooledFalse(barberId, customerId)
                 .orElseThrow(() -> new RuntimeException("Customer not in queue"));
     }
 
@@ -160,9 +488,6 @@ public class QueueService {
     public int calculateEstimatedWaitTime(Long barberId, Long customerId) {
         QueueEntry customerEntry = getCustomerPosition(barberId, customerId);
 
-        // Average service duration in minutes (can be configurable)
-        int avgServiceDuration = 30;
-
         // Count customers ahead
         List<QueueEntry> queue = queueRepository
                 .findByBarberIdAndStatusOrderByPositionAsc(barberId, QueueStatus.WAITING);
@@ -174,6 +499,6 @@ public class QueueService {
             }
         }
 
-        return customersAhead * avgServiceDuration;
+        return customersAhead * AVG_SERVICE_DURATION;
     }
 }
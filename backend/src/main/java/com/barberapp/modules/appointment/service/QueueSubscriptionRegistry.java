@@ -0,0 +1,149 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.event.QueueWindowSubscribedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks which customers are subscribed to their windowed queue view
+ * (/topic/barber/{barberId}/customer/{customerId}) so queue updates are
+ * only rendered for customers that are actually listening.
+ *
+ * Also registered as an inbound channel interceptor: once the broker has
+ * handled a window SUBSCRIBE, it asks for the initial window to be sent.
+ * Sending from SessionSubscribeEvent instead would race the broker's own
+ * registration and the message could be lost.
+ */
+@Component
+public class QueueSubscriptionRegistry implements ExecutorChannelInterceptor {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public static final String WINDOW_DESTINATION = "/topic/barber/%d/customer/%d";
+
+    private static final Pattern WINDOW_PATTERN = Pattern.compile("^/topic/barber/(\\d+)/customer/(\\d+)$");
+
+    // sessionId -> (subscriptionId -> target)
+    private final Map<String, Map<String, Target>> bySession = new ConcurrentHashMap<>();
+
+    // barberId -> (customerId -> number of live subscriptions)
+    private final Map<Long, Map<Long, Integer>> customersByBarber = new ConcurrentHashMap<>();
+
+    private record Target(Long barberId, Long customerId) {
+    }
+
+    public static String windowDestination(Long barberId, Long customerId) {
+        return String.format(WINDOW_DESTINATION, barberId, customerId);
+    }
+
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Matcher matcher = WINDOW_PATTERN.matcher(destination);
+        if (!matcher.matches()) {
+            return;
+        }
+
+        Target target = new Target(Long.valueOf(matcher.group(1)), Long.valueOf(matcher.group(2)));
+        Target previous = bySession
+                .computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), target);
+        if (previous != null) {
+            release(previous);
+        }
+
+        // Increment inside compute so a concurrent release can't drop the inner map in between
+        customersByBarber.compute(target.barberId(), (barberId, customers) -> {
+            Map<Long, Integer> updated = customers == null ? new ConcurrentHashMap<>() : customers;
+            updated.merge(target.customerId(), 1, Integer::sum);
+            return updated;
+        });
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof SimpleBrokerMessageHandler)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return;
+        }
+        Matcher matcher = WINDOW_PATTERN.matcher(destination);
+        if (matcher.matches()) {
+            eventPublisher.publishEvent(new QueueWindowSubscribedEvent(
+                    Long.valueOf(matcher.group(1)), Long.valueOf(matcher.group(2))));
+        }
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Map<String, Target> subscriptions = bySession.get(accessor.getSessionId());
+        if (subscriptions != null) {
+            Target target = subscriptions.remove(accessor.getSubscriptionId());
+            if (target != null) {
+                release(target);
+            }
+        }
+    }
+
+    @EventListener
+    public void handleDisconnect(SessionDisconnectEvent event) {
+        Map<String, Target> subscriptions = bySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    /**
+     * Customers with at least one live window subscription for the barber
+     */
+    public Set<Long> getSubscribedCustomers(Long barberId) {
+        Map<Long, Integer> customers = customersByBarber.get(barberId);
+        if (customers == null) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(customers.keySet());
+    }
+
+    private void release(Target target) {
+        customersByBarber.computeIfPresent(target.barberId(), (barberId, customers) -> {
+            customers.computeIfPresent(target.customerId(), (customerId, count) -> count > 1 ? count - 1 : null);
+            return customers.isEmpty() ? null : customers;
+        });
+    }
+}
@@ -0,0 +1,189 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.model.SlotGenerationProgress;
+import com.barberapp.modules.appointment.model.WorkingHours;
+import com.barberapp.modules.appointment.repository.SlotGenerationProgressRepository;
+import com.barberapp.modules.appointment.repository.WorkingHoursRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps every barber's calendar filled to a rolling horizon and purges
+ * unbooked slots that are already in the past.
+ *
+ * Barbers are processed in parallel on a bounded pool; each barber-day is
+ * committed on its own together with its progress row (see
+ * {@link SlotService#generateDay}), so a crashed or restarted run resumes
+ * from the first day that was not committed. Every new day's run walks the
+ * whole horizon again, so template changes reach days generated earlier.
+ * If today's run is missing or incomplete at startup, a catch-up run is
+ * started right away instead of waiting for the next cron tick.
+ */
+@Slf4j
+@Component
+public class SlotGenerationJob {
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private SlotGenerationProgressRepository progressRepository;
+
+    @Autowired
+    @Qualifier("taskScheduler")
+    private TaskScheduler taskScheduler;
+
+    @Value("${slots.generation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${slots.generation.horizon-days:30}")
+    private int horizonDays;
+
+    @Value("${slots.generation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${slots.purge.batch-size:500}")
+    private int purgeBatchSize;
+
+    @Value("${slots.purge.max-batches:20}")
+    private int purgeMaxBatches;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Scheduled(cron = "${slots.generation.cron:0 0 3 * * *}")
+    public void run() {
+        // Skip if disabled or a previous run is still going
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int created = fillHorizon(LocalDate.now());
+            int purged = purgeExpired(LocalDateTime.now());
+            log.info("Slot generation finished: {} slots created, {} expired slots purged", created, purged);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        LocalDate today = LocalDate.now();
+        if (enabled && !isComplete(today)) {
+            log.info("Slot generation for {} is incomplete, starting catch-up run", today);
+            // Hand off so startup is not held up by the run
+            taskScheduler.schedule(this::run, Instant.now());
+        }
+    }
+
+    /**
+     * True when every barber with working hours has been generated through
+     * the end of the horizon by a run started today.
+     */
+    boolean isComplete(LocalDate today) {
+        List<Long> barberIds = workingHoursRepository.findDistinctBarberIds();
+        Map<Long, SlotGenerationProgress> progress = progressRepository.findAllById(barberIds).stream()
+                .collect(Collectors.toMap(SlotGenerationProgress::getBarberId, Function.identity()));
+        LocalDate lastDay = today.plusDays(horizonDays - 1L);
+
+        return barberIds.stream()
+                .map(progress::get)
+                .allMatch(p -> p != null && today.equals(p.getRunDate()) && !p.getGeneratedThrough().isBefore(lastDay));
+    }
+
+    /**
+     * Generates slots for all barbers with working hours, from today up to
+     * (excluding) today + horizonDays. Returns the number of slots created.
+     */
+    public int fillHorizon(LocalDate today) {
+        LocalDate horizonEnd = today.plusDays(horizonDays);
+
+        List<Callable<Integer>> tasks = workingHoursRepository.findDistinctBarberIds().stream()
+                .map(barberId -> (Callable<Integer>) () -> fillBarber(barberId, today, horizonEnd))
+                .toList();
+
+        int created = 0;
+        for (Future<Integer> result : pool.invokeAll(tasks)) {
+            try {
+                created += result.get();
+            } catch (ExecutionException e) {
+                // Days committed before the failure are kept; the next run resumes after them
+                log.error("Slot generation failed for a barber", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return created;
+    }
+
+    private int fillBarber(Long barberId, LocalDate today, LocalDate horizonEnd) {
+        List<WorkingHours> templates = workingHoursRepository.findByBarberId(barberId);
+
+        // Resume after the last committed day only within today's run; otherwise walk the full horizon
+        LocalDate from = progressRepository.findById(barberId)
+                .filter(progress -> today.equals(progress.getRunDate()))
+                .map(SlotGenerationProgress::getGeneratedThrough)
+                .map(day -> day.plusDays(1))
+                .filter(day -> day.isAfter(today))
+                .orElse(today);
+
+        int created = 0;
+        for (LocalDate day = from; day.isBefore(horizonEnd); day = day.plusDays(1)) {
+            created += slotService.generateDay(barberId, day, templates, today);
+        }
+        return created;
+    }
+
+    /**
+     * Deletes unbooked slots that ended before the cutoff in bounded batches.
+     * Stops after purgeMaxBatches; whatever is left is picked up next run.
+     */
+    public int purgeExpired(LocalDateTime cutoff) {
+        int purged = 0;
+        for (int batch = 0; batch < purgeMaxBatches; batch++) {
+            int deleted = slotService.purgeExpiredBatch(cutoff, purgeBatchSize);
+            purged += deleted;
+            if (deleted < purgeBatchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+}
@@ -1,14 +1,24 @@
 package com.barberapp.modules.appointment.service;
 
 import com.barberapp.modules.appointment.model.Slot;
+import com.barberapp.modules.appointment.model.SlotGenerationProgress;
+import com.barberapp.modules.appointment.model.WorkingHours;
+import com.barberapp.modules.appointment.repository.SlotGenerationProgressRepository;
 import com.barberapp.modules.appointment.repository.SlotRepository;
+import com.barberapp.modules.appointment.repository.WorkingHoursRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class SlotService {
@@ -16,6 +26,12 @@ public class SlotService {
     @Autowired
     private SlotRepository slotRepository;
 
+    @Autowired
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Autowired
+    private SlotGenerationProgressRepository progressRepository;
+
     /**
      * Generates slots for a barber within a given time range and interval.
      * Prevents duplicates by checking existing slots.
@@ -70,4 +86,97 @@ public class SlotService {
         LocalDateTime end = date.withHour(23).withMinute(59);
         return slotRepository.findByBarberIdAndStartTimeBetween(barberId, start, end);
     }
+
+    /**
+     * Generates one barber-day of slots from the barber's working-hour templates
+     * and records the day as done, both in a single transaction of its own.
+     * Safe to re-run: slots that already exist are skipped.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int generateDay(Long barberId, LocalDate date, List<WorkingHours> templates, LocalDate runDate) {
+        Set<LocalDateTime> existing = slotRepository
+                .findByBarberIdAndStartTimeBetween(barberId, date.atStartOfDay(), date.atTime(LocalTime.MAX))
+                .stream()
+                .map(Slot::getStartTime)
+                .collect(Collectors.toSet());
+
+        List<Slot> newSlots = new ArrayList<>();
+        for (WorkingHours template : templates) {
+            if (template.getDayOfWeek() != date.getDayOfWeek()) {
+                continue;
+            }
+
+            LocalDateTime current = date.atTime(template.getStartTime());
+            LocalDateTime end = date.atTime(template.getEndTime());
+            int duration = template.getSlotDurationMinutes();
+
+            while (!current.plusMinutes(duration).isAfter(end)) {
+                if (existing.add(current)) {
+                    Slot slot = new Slot();
+                    slot.setBarberId(barberId);
+                    slot.setStartTime(current);
+                    slot.setEndTime(current.plusMinutes(duration));
+                    slot.setStatus(Slot.SlotStatus.AVAILABLE);
+                    newSlots.add(slot);
+                }
+                current = current.plusMinutes(duration);
+            }
+        }
+
+        slotRepository.saveAll(newSlots);
+        progressRepository.save(new SlotGenerationProgress(barberId, date, runDate));
+        return newSlots.size();
+    }
+
+    /**
+     * Deletes up to batchSize unbooked slots that ended before the cutoff.
+     * Each batch is its own short transaction to keep row locks brief.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int purgeExpiredBatch(LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = slotRepository.findIdsByStatusAndEndTimeBefore(
+                Slot.SlotStatus.AVAILABLE, cutoff, PageRequest.of(0, batchSize));
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return slotRepository.deleteByIdInAndStatus(ids, Slot.SlotStatus.AVAILABLE);
+    }
+
+    /**
+     * Adds a working-hour template. Templates for the same barber and day may not overlap.
+     */
+    @Transactional
+    public WorkingHours saveWorkingHours(WorkingHours workingHours) {
+        if (workingHours.getBarberId() == null || workingHours.getDayOfWeek() == null
+                || workingHours.getStartTime() == null || workingHours.getEndTime() == null) {
+            throw new RuntimeException("barberId, dayOfWeek, startTime and endTime are required");
+        }
+        if (!workingHours.getEndTime().isAfter(workingHours.getStartTime())) {
+            throw new RuntimeException("endTime must be after startTime");
+        }
+        if (workingHours.getSlotDurationMinutes() == null || workingHours.getSlotDurationMinutes() <= 0) {
+            throw new RuntimeException("slotDurationMinutes must be positive");
+        }
+
+        boolean overlaps = workingHoursRepository.findByBarberId(workingHours.getBarberId()).stream()
+                .anyMatch(existing -> existing.getDayOfWeek() == workingHours.getDayOfWeek()
+                        && existing.getStartTime().isBefore(workingHours.getEndTime())
+                        && workingHours.getStartTime().isBefore(existing.getEndTime()));
+        if (overlaps) {
+            throw new RuntimeException("Working hours overlap an existing template");
+        }
+
+        // Always insert; a client-supplied id must not overwrite another template
+        workingHours.setId(null);
+        WorkingHours saved = workingHoursRepository.save(workingHours);
+
+        // Make a same-day rerun of the generation job walk the full horizon again
+        progressRepository.deleteById(workingHours.getBarberId());
+        return saved;
+    }
+
+    public List<WorkingHours> getWorkingHours(Long barberId) {
+        return workingHoursRepository.findByBarberId(barberId);
+    }
 }
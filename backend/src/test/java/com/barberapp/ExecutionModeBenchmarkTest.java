@@ -0,0 +1,253 @@
+package com.barberapp;
+
+import com.barberapp.modules.appointment.model.Slot;
+import com.barberapp.modules.appointment.service.SlotService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the default platform-thread setup with the "virtual" profile
+ * under a mixed read / queue-join / contended-booking load, and records virtual thread
+ * pinning (JFR jdk.VirtualThreadPinned) during the virtual run. Also checks
+ * which kind of thread the @Async queue notifier runs on in each mode.
+ *
+ * Not part of the normal test run. Needs Java 21:
+ *   ./mvnw test -Dtest=ExecutionModeBenchmarkTest -Dbenchmark=true
+ * Optional: -Dbenchmark.requests=4000 -Dbenchmark.concurrency=400
+ *           -Dbenchmark.datasource.url=... (defaults to in-memory H2)
+ *           -Dbenchmark.datasource.username=... -Dbenchmark.datasource.password=...
+ *           -Dbenchmark.datasource.driver=... -Dbenchmark.datasource.dialect=...
+ * With a URL override the driver and dialect default to empty, so Boot and
+ * Hibernate detect them from the URL / connection instead of staying on H2.
+ * The schema is recreated for each mode.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+public class ExecutionModeBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 4000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+
+    // Few hot slots so bookings queue up on the pessimistic lock
+    private static final int HOT_SLOTS = 8;
+
+    private record Result(String mode, long millis, int errors, List<Long> latenciesMicros,
+                          int pinnedEvents, Map<String, Integer> pinnedAt, Set<Boolean> notifierVirtual) {
+
+        double throughput() {
+            return REQUESTS * 1000.0 / millis;
+        }
+
+        long percentileMillis(double p) {
+            int index = (int) Math.ceil(p * latenciesMicros.size()) - 1;
+            return latenciesMicros.get(Math.max(0, index)) / 1000;
+        }
+    }
+
+    @Test
+    public void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run("platform");
+        Result virtual = run("virtual");
+
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-8s  %6d ms  %8.1f req/s  p50 %5d ms  p99 %5d ms  errors %d  pinned %d%n",
+                    result.mode(), result.millis(), result.throughput(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99),
+                    result.errors(), result.pinnedEvents());
+        }
+        virtual.pinnedAt().forEach((frame, count) ->
+                System.out.printf("  pinned %4d x at %s%n", count, frame));
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+
+        // Queue notifications (@Async QueueNotifyService) must follow the selected mode
+        assertEquals(Set.of(false), platform.notifierVirtual());
+        assertEquals(Set.of(true), virtual.notifierVirtual());
+
+        // Driver pinning is reported above; our own code must never pin
+        assertTrue(virtual.pinnedAt().keySet().stream().noneMatch(frame -> frame.startsWith("com.barberapp.")),
+                "Virtual threads pinned inside application code: " + virtual.pinnedAt());
+    }
+
+    private Result run(String mode) throws Exception {
+        // Passed as command-line args: default properties would lose to application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--slots.generation.enabled=false"));
+        datasourceProperties(mode).forEach(property -> args.add("--" + property));
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BarberShopApplication.class);
+        if (mode.equals("virtual")) {
+            builder.profiles("virtual");
+        }
+
+        Map<String, Integer> pinnedAt = new ConcurrentHashMap<>();
+        AtomicInteger pinnedEvents = new AtomicInteger();
+        Set<Boolean> notifierVirtual = ConcurrentHashMap.newKeySet();
+
+        try (ConfigurableApplicationContext context = builder.run(args.toArray(String[]::new));
+             RecordingStream recording = new RecordingStream()) {
+
+            recording.enable("jdk.VirtualThreadPinned").withStackTrace().withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinnedEvents.incrementAndGet();
+                pinnedAt.merge(firstNonJdkFrame(event), 1, Integer::sum);
+            });
+            recording.startAsync();
+
+            // The simple broker channel is synchronous, so preSend runs on the notifier's own thread
+            context.getBean("brokerChannel", AbstractSubscribableChannel.class).addInterceptor(new ChannelInterceptor() {
+                @Override
+                public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    if (destination != null && destination.startsWith("/topic/barber/")) {
+                        notifierVirtual.add(isVirtual(Thread.currentThread()));
+                    }
+                    return message;
+                }
+            });
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            List<Long> slotIds = seedSlots(context.getBean(SlotService.class));
+
+            Result result = load(mode, port, slotIds);
+
+            // JFR streams events with a small delay; let the last ones arrive
+            Thread.sleep(2000);
+            return new Result(mode, result.millis(), result.errors(), result.latenciesMicros(),
+                    pinnedEvents.get(), Map.copyOf(pinnedAt), Set.copyOf(notifierVirtual));
+        }
+    }
+
+    private List<Long> seedSlots(SlotService slotService) {
+        LocalDateTime start = LocalDate.now().plusDays(1).atStartOfDay();
+        return slotService.generateSlots(1L, start, start.plusHours(HOT_SLOTS), 60).stream()
+                .map(Slot::getId)
+                .toList();
+    }
+
+    private Result load(String mode, int port, List<Long> slotIds) throws Exception {
+        String base = "http://localhost:" + port + "/api";
+        String date = LocalDate.now().plusDays(1).atStartOfDay().toString();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        List<Callable<Long>> calls = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest request = switch (i % 4) {
+                case 0 -> HttpRequest.newBuilder(URI.create(
+                        base + "/slots/" + slotIds.get(i % slotIds.size()) + "/book?userId=" + i))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+                case 1 -> HttpRequest.newBuilder(URI.create(base + "/slots?barberId=1&date=" + date)).GET().build();
+                // Joins publish queue events, exercising the @Async notifier and STOMP outbound path
+                case 2 -> HttpRequest.newBuilder(URI.create(base + "/queue/join?barberId=2&customerId=" + i))
+                        .POST(HttpRequest.BodyPublishers.noBody()).build();
+                default -> HttpRequest.newBuilder(URI.create(base + "/queue?barberId=1&offset=0&limit=10")).GET().build();
+            };
+            calls.add(() -> {
+                long begin = System.nanoTime();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                // 400 is the expected answer for a slot that is already booked
+                if (response.statusCode() >= 500) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                return (System.nanoTime() - begin) / 1000;
+            });
+        }
+
+        // Same platform-thread client for both modes so only the server side differs
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            long begin = System.nanoTime();
+            List<Future<Long>> futures = clients.invokeAll(calls);
+            long millis = (System.nanoTime() - begin) / 1_000_000;
+
+            List<Long> latencies = new ArrayList<>();
+            int errors = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    latencies.add(future.get());
+                } catch (Exception e) {
+                    errors++;
+                }
+            }
+            Collections.sort(latencies);
+            return new Result(mode, millis, errors, latencies, 0, Map.of(), Set.of());
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    // Thread.isVirtual() is Java 21 API; the test sources still compile for 17
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static List<String> datasourceProperties(String mode) {
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url == null) {
+            return List.of("spring.datasource.url=jdbc:h2:mem:benchmark-" + mode + ";LOCK_TIMEOUT=10000");
+        }
+
+        String dialect = System.getProperty("benchmark.datasource.dialect", "");
+        return List.of(
+                "spring.datasource.url=" + url,
+                "spring.datasource.driver-class-name=" + System.getProperty("benchmark.datasource.driver", ""),
+                "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", ""),
+                "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                "spring.jpa.database-platform=" + dialect,
+                "spring.jpa.properties.hibernate.dialect=" + dialect);
+    }
+
+    private static String firstNonJdkFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "<no stack>";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "<jdk>";
+    }
+}
@@ -0,0 +1,95 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.model.QueueEntry;
+import com.barberapp.modules.appointment.model.QueueStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueueDispatcherTest {
+
+    private final QueueDispatcher dispatcher = new QueueDispatcher();
+
+    private QueueEntry pooledEntry(long id, int position) {
+        QueueEntry entry = new QueueEntry();
+        entry.setId(id);
+        entry.setCustomerId(100L + id);
+        entry.setPosition(position);
+        entry.setStatus(QueueStatus.WAITING);
+        entry.setPooled(true);
+        return entry;
+    }
+
+    @Test
+    public void testFreeBarberTakesCustomerImmediately() {
+        assertTrue(dispatcher.offerBarber(7L).isEmpty());
+
+        Optional<Long> barber = dispatcher.offerCustomer(pooledEntry(1L, 1));
+
+        assertEquals(Optional.of(7L), barber);
+        assertEquals(-1, dispatcher.customersAhead(1L));
+    }
+
+    @Test
+    public void testFreedBarberTakesHeadCustomer() {
+        dispatcher.offerCustomer(pooledEntry(2L, 2));
+        dispatcher.offerCustomer(pooledEntry(1L, 1));
+
+        assertEquals(1, dispatcher.customersAhead(2L));
+        assertEquals(Optional.of(1L), dispatcher.offerBarber(7L).map(QueueDispatcher.Ticket::entryId));
+        assertEquals(Optional.of(2L), dispatcher.offerBarber(8L).map(QueueDispatcher.Ticket::entryId));
+        assertTrue(dispatcher.offerBarber(9L).isEmpty());
+    }
+
+    @Test
+    public void testCancelledCustomerIsSkipped() {
+        dispatcher.offerCustomer(pooledEntry(1L, 1));
+        dispatcher.offerCustomer(pooledEntry(2L, 2));
+
+        assertTrue(dispatcher.removeCustomer(1L));
+        assertEquals(Optional.of(2L), dispatcher.offerBarber(7L).map(QueueDispatcher.Ticket::entryId));
+    }
+
+    @Test
+    public void testConcurrentCompletesGetDistinctCustomers() throws Exception {
+        int customers = 200;
+        for (int i = 1; i <= customers; i++) {
+            dispatcher.offerCustomer(pooledEntry(i, i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Optional<QueueDispatcher.Ticket>>> completes = new ArrayList<>();
+            for (int i = 0; i < customers; i++) {
+                long barberId = i % 8;
+                completes.add(() -> dispatcher.offerBarber(barberId));
+            }
+
+            Set<Long> assigned = new HashSet<>();
+            for (Future<Optional<QueueDispatcher.Ticket>> result : executor.invokeAll(completes)) {
+                assertTrue(assigned.add(result.get().orElseThrow().entryId()));
+            }
+            assertEquals(customers, assigned.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRebuildRestoresPoolBarbers() {
+        dispatcher.rebuild(List.of(pooledEntry(1L, 1)), List.of(7L, 8L));
+
+        assertTrue(dispatcher.isPoolBarber(7L));
+        assertEquals(Optional.of(1L), dispatcher.offerBarber(8L).map(QueueDispatcher.Ticket::entryId));
+    }
+}
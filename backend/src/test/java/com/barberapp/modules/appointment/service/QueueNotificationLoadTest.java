@@ -0,0 +1,114 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.repository.PoolBarberRepository;
+import com.barberapp.modules.appointment.repository.QueueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many concurrent joins against a tiny JDBC pool. Each join publishes a
+ * notification that itself needs a connection; if request threads waited
+ * for the @Async executor while holding their connection, joins would time
+ * out on the pool and notifications would be lost.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notificationload;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000",
+        "spring.jpa.show-sql=false"
+})
+public class QueueNotificationLoadTest {
+
+    private static final int JOINS = 200;
+    private static final int REQUEST_THREADS = 32;
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private QueueRepository queueRepository;
+
+    @Autowired
+    private PoolBarberRepository poolBarberRepository;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private AbstractSubscribableChannel brokerChannel;
+
+    private final AtomicInteger barberBroadcasts = new AtomicInteger();
+
+    private final ChannelInterceptor counter = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (destination != null && destination.matches("/topic/barber/\\d+")) {
+                barberBroadcasts.incrementAndGet();
+            }
+            return message;
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        queueRepository.deleteAll();
+        poolBarberRepository.deleteAll();
+        queueService.restorePool();
+        brokerChannel.addInterceptor(counter);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        brokerChannel.removeInterceptor(counter);
+    }
+
+    @Test
+    public void testJoinsAndNotificationsCompleteWithSmallConnectionPool() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUEST_THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < JOINS; i++) {
+                long barberId = 1000L + i;
+                long customerId = 5000L + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return queueService.joinQueue(barberId, customerId);
+                }));
+            }
+            start.countDown();
+
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Notifications run after the joins returned; wait for all of them
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (barberBroadcasts.get() < JOINS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(JOINS, barberBroadcasts.get());
+    }
+}
@@ -0,0 +1,61 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.dto.QueueWindow;
+import com.barberapp.modules.appointment.model.QueueEntry;
+import com.barberapp.modules.appointment.model.QueueStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueueRankIndexTest {
+
+    private List<QueueEntry> activeQueue(int size) {
+        List<QueueEntry> entries = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            QueueEntry entry = new QueueEntry();
+            entry.setBarberId(1L);
+            entry.setCustomerId(100L + i);
+            entry.setPosition(i);
+            entry.setStatus(i == 1 ? QueueStatus.IN_PROGRESS : QueueStatus.WAITING);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @Test
+    public void testWindowIncludesHeadAndOwnRank() {
+        QueueRankIndex index = new QueueRankIndex(1L, activeQueue(50));
+
+        QueueWindow window = index.windowFor(140L, 5);
+
+        assertEquals(5, window.getHead().size());
+        assertEquals(101L, window.getHead().get(0).getCustomerId());
+        assertEquals(40, window.getRank());
+        assertEquals(140L, window.getSelf().getCustomerId());
+        assertEquals(50, window.getActiveCount());
+        // 38 WAITING ahead (rank 1 is IN_PROGRESS)
+        assertEquals(38 * QueueService.AVG_SERVICE_DURATION, window.getEstimatedWaitTime());
+    }
+
+    @Test
+    public void testWindowLargerThanQueue() {
+        QueueRankIndex index = new QueueRankIndex(1L, activeQueue(3));
+
+        assertEquals(3, index.head(10).size());
+        assertEquals(1, index.rankOf(101L));
+    }
+
+    @Test
+    public void testCustomerNotInQueue() {
+        QueueRankIndex index = new QueueRankIndex(1L, activeQueue(3));
+
+        QueueWindow window = index.windowFor(999L, 2);
+
+        assertNull(window.getRank());
+        assertNull(window.getSelf());
+        assertEquals(2, window.getHead().size());
+    }
+}
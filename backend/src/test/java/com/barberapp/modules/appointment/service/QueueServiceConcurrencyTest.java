@@ -0,0 +1,140 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.model.QueueEntry;
+import com.barberapp.modules.appointment.model.QueueStatus;
+import com.barberapp.modules.appointment.repository.PoolBarberRepository;
+import com.barberapp.modules.appointment.repository.QueueRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class QueueServiceConcurrencyTest {
+
+    private static final Long BARBER_ID = 1L;
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private QueueRepository queueRepository;
+
+    @Autowired
+    private PoolBarberRepository poolBarberRepository;
+
+    @Autowired
+    private QueueDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        queueRepository.deleteAll();
+        poolBarberRepository.deleteAll();
+        queueService.restorePool();
+    }
+
+    @Test
+    public void testConcurrentCompletesForSameBarberKeepOneCustomerInProgress() throws Exception {
+        queueService.barberAvailable(BARBER_ID);
+        queueService.joinPool(101L); // dispatched straight to the idle barber
+        queueService.joinPool(102L);
+        queueService.joinPool(103L);
+
+        assertEquals(1, inProgress().size());
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> results = List.of(
+                    executor.submit(() -> complete(start)),
+                    executor.submit(() -> complete(start)));
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+
+            // Each successful complete hands the barber exactly one new pooled customer
+            assertEquals(1, inProgress().size());
+            assertEquals(succeeded, queueRepository.findAll().stream()
+                    .filter(entry -> entry.getStatus() == QueueStatus.COMPLETED)
+                    .count());
+            assertEquals(2 - succeeded, queueService.getPool().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatchSkipsBarberThatIsAlreadyServing() {
+        queueService.barberAvailable(BARBER_ID);
+        queueService.joinPool(101L);
+        assertEquals(1, inProgress().size());
+
+        // What a resume racing an in-flight dispatch leaves behind: a busy barber marked idle
+        dispatcher.releaseBarber(BARBER_ID);
+        queueService.joinPool(102L);
+
+        assertEquals(1, inProgress().size());
+        assertEquals(101L, inProgress().get(0).getCustomerId());
+        assertEquals(1, queueService.getPool().size());
+    }
+
+    @Test
+    public void testConcurrentResumeAndPoolJoinKeepOneCustomerInProgress() throws Exception {
+        queueService.barberAvailable(BARBER_ID);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long customerId = 201L; customerId < 221L; customerId++) {
+                long joining = customerId;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> results = List.of(
+                        executor.submit(() -> {
+                            start.await();
+                            return queueService.joinPool(joining);
+                        }),
+                        executor.submit(() -> {
+                            start.await();
+                            queueService.barberAvailable(BARBER_ID);
+                            return null;
+                        }));
+                start.countDown();
+                for (Future<?> result : results) {
+                    result.get(30, TimeUnit.SECONDS);
+                }
+
+                assertEquals(1, inProgress().size());
+                queueService.completeCurrentCustomer(BARBER_ID);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean complete(CountDownLatch start) throws InterruptedException {
+        start.await();
+        try {
+            queueService.completeCurrentCustomer(BARBER_ID);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private List<QueueEntry> inProgress() {
+        return queueRepository.findByBarberIdAndStatusOrderByPositionAsc(BARBER_ID, QueueStatus.IN_PROGRESS);
+    }
+}
@@ -0,0 +1,74 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.event.QueueWindowSubscribedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class QueueSubscriptionRegistryTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private QueueSubscriptionRegistry registry;
+
+    private Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    public void testSubscribeAndDisconnect() {
+        registry.handleSubscribe(new SessionSubscribeEvent(this, subscribe("s1", "sub-1", "/topic/barber/1/customer/7")));
+
+        assertEquals(Set.of(7L), registry.getSubscribedCustomers(1L));
+
+        Message<byte[]> disconnect = MessageBuilder.createMessage(new byte[0],
+                StompHeaderAccessor.create(StompCommand.DISCONNECT).getMessageHeaders());
+        registry.handleDisconnect(new SessionDisconnectEvent(this, disconnect, "s1", CloseStatus.NORMAL));
+
+        assertTrue(registry.getSubscribedCustomers(1L).isEmpty());
+    }
+
+    @Test
+    public void testInitialWindowRequestedAfterBrokerHandledSubscribe() {
+        Message<byte[]> message = subscribe("s1", "sub-1", "/topic/barber/1/customer/7");
+
+        registry.afterMessageHandled(message, null, mock(SimpleBrokerMessageHandler.class), null);
+
+        verify(eventPublisher).publishEvent(new QueueWindowSubscribedEvent(1L, 7L));
+    }
+
+    @Test
+    public void testNoInitialWindowForOtherHandlersOrTopics() {
+        registry.afterMessageHandled(subscribe("s1", "sub-1", "/topic/barber/1/customer/7"),
+                null, mock(MessageHandler.class), null);
+        registry.afterMessageHandled(subscribe("s1", "sub-2", "/topic/barber/1"),
+                null, mock(SimpleBrokerMessageHandler.class), null);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
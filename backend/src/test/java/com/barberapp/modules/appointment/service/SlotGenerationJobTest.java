@@ -0,0 +1,129 @@
+package com.barberapp.modules.appointment.service;
+
+import com.barberapp.modules.appointment.model.SlotGenerationProgress;
+import com.barberapp.modules.appointment.repository.SlotGenerationProgressRepository;
+import com.barberapp.modules.appointment.repository.WorkingHoursRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SlotGenerationJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private SlotService slotService;
+
+    @Mock
+    private WorkingHoursRepository workingHoursRepository;
+
+    @Mock
+    private SlotGenerationProgressRepository progressRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private SlotGenerationJob job;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "horizonDays", 5);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "purgeBatchSize", 100);
+        ReflectionTestUtils.setField(job, "purgeMaxBatches", 3);
+        job.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        job.shutdown();
+    }
+
+    @Test
+    public void testResumesAfterLastCommittedDayOfTodaysRun() {
+        when(workingHoursRepository.findDistinctBarberIds()).thenReturn(List.of(1L));
+        when(workingHoursRepository.findByBarberId(1L)).thenReturn(Collections.emptyList());
+        when(progressRepository.findById(1L))
+                .thenReturn(Optional.of(new SlotGenerationProgress(1L, TODAY.plusDays(2), TODAY)));
+
+        job.fillHorizon(TODAY);
+
+        verify(slotService).generateDay(eq(1L), eq(TODAY.plusDays(3)), any(), eq(TODAY));
+        verify(slotService).generateDay(eq(1L), eq(TODAY.plusDays(4)), any(), eq(TODAY));
+        verify(slotService, times(2)).generateDay(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testNewRunWalksWholeHorizon() {
+        when(workingHoursRepository.findDistinctBarberIds()).thenReturn(List.of(1L));
+        when(workingHoursRepository.findByBarberId(1L)).thenReturn(Collections.emptyList());
+        // Yesterday's run got all the way to the end of its horizon
+        when(progressRepository.findById(1L))
+                .thenReturn(Optional.of(new SlotGenerationProgress(1L, TODAY.plusDays(3), TODAY.minusDays(1))));
+
+        job.fillHorizon(TODAY);
+
+        verify(slotService).generateDay(eq(1L), eq(TODAY), any(), eq(TODAY));
+        verify(slotService, times(5)).generateDay(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testPurgeStopsAfterMaxBatches() {
+        when(slotService.purgeExpiredBatch(any(), anyInt())).thenReturn(100);
+
+        int purged = job.purgeExpired(LocalDateTime.of(TODAY, LocalTime.NOON));
+
+        assertEquals(300, purged);
+        verify(slotService, times(3)).purgeExpiredBatch(any(), eq(100));
+    }
+
+    @Test
+    public void testPurgeStopsOnShortBatch() {
+        when(slotService.purgeExpiredBatch(any(), anyInt())).thenReturn(100, 40);
+
+        int purged = job.purgeExpired(LocalDateTime.of(TODAY, LocalTime.NOON));
+
+        assertEquals(140, purged);
+        verify(slotService, times(2)).purgeExpiredBatch(any(), eq(100));
+    }
+
+    @Test
+    public void testCatchUpOnlyWhenTodaysRunIsIncomplete() {
+        LocalDate today = LocalDate.now();
+        when(workingHoursRepository.findDistinctBarberIds()).thenReturn(List.of(1L));
+
+        when(progressRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(new SlotGenerationProgress(1L, today.plusDays(1), today)));
+        job.catchUp();
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+
+        reset(taskScheduler);
+        when(progressRepository.findAllById(List.of(1L)))
+                .thenReturn(List.of(new SlotGenerationProgress(1L, today.plusDays(4), today)));
+        job.catchUp();
+        verifyNoInteractions(taskScheduler);
+    }
+}
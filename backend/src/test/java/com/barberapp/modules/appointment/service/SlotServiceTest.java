@@ -1,19 +1,27 @@
 package com.barberapp.modules.appointment.service;
 
 import com.barberapp.modules.appointment.model.Slot;
+import com.barberapp.modules.appointment.model.SlotGenerationProgress;
+import com.barberapp.modules.appointment.model.WorkingHours;
+import com.barberapp.modules.appointment.repository.SlotGenerationProgressRepository;
 import com.barberapp.modules.appointment.repository.SlotRepository;
+import com.barberapp.modules.appointment.repository.WorkingHoursRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +30,12 @@ public class SlotServiceTest {
     @Mock
     private SlotRepository slotRepository;
 
+    @Mock
+    private SlotGenerationProgressRepository progressRepository;
+
+    @Mock
+    private WorkingHoursRepository workingHoursRepository;
+
     @InjectMocks
     private SlotService slotService;
 
@@ -68,4 +82,74 @@ public class SlotServiceTest {
             slotService.bookSlot(1L, 101L);
         });
     }
+
+    @Test
+    public void testGenerateDaySkipsExistingSlots() {
+        LocalDate friday = LocalDate.of(2023, 10, 27);
+        WorkingHours hours = new WorkingHours(1L, 1L, DayOfWeek.FRIDAY,
+                LocalTime.of(9, 0), LocalTime.of(10, 30), 30);
+
+        Slot existing = new Slot();
+        existing.setStartTime(friday.atTime(9, 30));
+
+        when(slotRepository.findByBarberIdAndStartTimeBetween(any(), any(), any()))
+                .thenReturn(List.of(existing));
+
+        int created = slotService.generateDay(1L, friday, List.of(hours), friday);
+
+        assertEquals(2, created); // 9:00 and 10:00, 9:30 already exists
+        verify(progressRepository).save(new SlotGenerationProgress(1L, friday, friday));
+    }
+
+    @Test
+    public void testGenerateDayWithoutTemplateStillRecordsProgress() {
+        LocalDate saturday = LocalDate.of(2023, 10, 28);
+        WorkingHours hours = new WorkingHours(1L, 1L, DayOfWeek.FRIDAY,
+                LocalTime.of(9, 0), LocalTime.of(10, 0), 30);
+
+        when(slotRepository.findByBarberIdAndStartTimeBetween(any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, slotService.generateDay(1L, saturday, List.of(hours), saturday));
+        verify(progressRepository).save(new SlotGenerationProgress(1L, saturday, saturday));
+    }
+
+    @Test
+    public void testPurgeExpiredBatch() {
+        LocalDateTime cutoff = LocalDateTime.of(2023, 10, 27, 12, 0);
+
+        when(slotRepository.findIdsByStatusAndEndTimeBefore(eq(Slot.SlotStatus.AVAILABLE), eq(cutoff), any()))
+                .thenReturn(List.of(1L, 2L));
+        when(slotRepository.deleteByIdInAndStatus(List.of(1L, 2L), Slot.SlotStatus.AVAILABLE))
+                .thenReturn(2);
+
+        assertEquals(2, slotService.purgeExpiredBatch(cutoff, 500));
+    }
+
+    @Test
+    public void testSaveWorkingHoursIgnoresClientIdAndResetsProgress() {
+        WorkingHours hours = new WorkingHours(42L, 1L, DayOfWeek.SATURDAY,
+                LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+
+        when(workingHoursRepository.findByBarberId(1L)).thenReturn(Collections.emptyList());
+        when(workingHoursRepository.save(any(WorkingHours.class))).thenAnswer(i -> i.getArguments()[0]);
+
+        WorkingHours saved = slotService.saveWorkingHours(hours);
+
+        assertNull(saved.getId());
+        verify(progressRepository).deleteById(1L);
+    }
+
+    @Test
+    public void testSaveWorkingHoursRejectsOverlap() {
+        WorkingHours existing = new WorkingHours(1L, 1L, DayOfWeek.FRIDAY,
+                LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+        WorkingHours overlapping = new WorkingHours(null, 1L, DayOfWeek.FRIDAY,
+                LocalTime.of(11, 0), LocalTime.of(14, 0), 30);
+
+        when(workingHoursRepository.findByBarberId(1L)).thenReturn(List.of(existing));
+
+        assertThrows(RuntimeException.class, () -> slotService.saveWorkingHours(overlapping));
+        verify(workingHoursRepository, never()).save(any());
+    }
 }
@@ -15,6 +15,7 @@ export const API_ENDPOINTS = {
         NO_SHOW: '/api/queue/no-show',
         GET_QUEUE: '/api/queue',
         GET_POSITION: '/api/queue/position',
+        GET_WINDOW: '/api/queue/window',
     },
     // Slot Management
     SLOTS: {
@@ -6,27 +6,30 @@
 import { useState, useEffect, useCallback } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useCustomer, useBarber } from '../context';
-import { joinQueue, getQueue, getPosition, cancelSlot } from '../services';
+import { joinQueue, getQueueWindow, cancelSlot } from '../services';
 import { useApi, useWebSocket } from '../hooks';
 import { Layout, Card, Button, LoadingSpinner, Badge, toast } from '../components';
 import { formatWaitTime, getRelativeTime } from '../utils/formatting';
-import type { QueueEntry, PositionResponse } from '../types';
+import type { QueueEntry, QueueWindow } from '../types';
 
 export const QueuePage = () => {
     const navigate = useNavigate();
     const { customer } = useCustomer();
     const { barberId } = useBarber();
 
-    const [queue, setQueue] = useState<QueueEntry[]>([]);
-    const [position, setPosition] = useState<PositionResponse | null>(null);
-    const [inQueue, setInQueue] = useState(false);
+    const [queueWindow, setQueueWindow] = useState<QueueWindow | null>(null);
     const [isJoining, setIsJoining] = useState(false);
 
-    const queueApi = useApi<QueueEntry[]>();
-    const positionApi = useApi<PositionResponse>();
+    const windowApi = useApi<QueueWindow>();
     const joinApi = useApi<QueueEntry>();
     const leaveApi = useApi<string>();
 
+    const queue = queueWindow?.head ?? [];
+    const self = queueWindow?.self ?? null;
+    const inQueue = self !== null;
+    // Own entry is listed separately when it falls outside the head of the queue
+    const selfOutsideHead = self !== null && !queue.some((entry) => entry.id === self.id);
+
     // Redirect if no customer
     useEffect(() => {
         if (!customer) {
@@ -34,68 +37,42 @@ export const QueuePage = () => {
         }
     }, [customer, navigate]);
 
-    // Fetch queue data
-    const fetchQueue = useCallback(async () => {
-        const result = await queueApi.execute(() => getQueue(barberId));
-        if (result) {
-            setQueue(result);
-        }
-    }, [barberId]);
-
-    const checkPosition = useCallback(async () => {
+    // Fetch the head of the queue plus own rank
+    const fetchWindow = useCallback(async () => {
         if (!customer) return;
 
-        const result = await positionApi.execute(() => getPosition(barberId, customer.id));
+        const result = await windowApi.execute(() => getQueueWindow(barberId, customer.id));
         if (result) {
-            setPosition(result);
-            setInQueue(true);
-        } else {
-            setPosition(null);
-            setInQueue(false);
+            setQueueWindow(result);
         }
     }, [customer, barberId]);
 
-    // WebSocket integration
+    // WebSocket integration - the server pushes a fresh window on subscribe and on every change
     const wsUrl = import.meta.env.VITE_WS_URL || 'http://localhost:8080/ws';
     const { status: wsStatus } = useWebSocket({
         url: wsUrl,
-        topic: `/topic/barber/${barberId}`,
+        topic: customer ? `/topic/barber/${barberId}/customer/${customer.id}` : '',
         onMessage: (message) => {
             console.log('[Queue Page] WebSocket message received:', message);
-            // Refresh queue and position when update received
-            fetchQueue();
-            if (inQueue) {
-                checkPosition();
-            }
+            setQueueWindow(message as QueueWindow);
         },
         enabled: !!customer,
     });
 
-    // Fallback polling when WebSocket fails
+    // Initial fetch, then fallback polling when WebSocket fails
     useEffect(() => {
         if (!customer) return;
 
-        // Initial fetch
-        fetchQueue();
-        // Only check position if we know customer is in queue
-        if (inQueue) {
-            checkPosition();
-        }
+        fetchWindow();
 
         // Only use polling if WebSocket failed
         if (wsStatus === 'failed') {
             console.log('[Queue Page] WebSocket failed, using fallback polling');
-            const interval = setInterval(() => {
-                fetchQueue();
-                // Only check position if customer is in queue
-                if (inQueue) {
-                    checkPosition();
-                }
-            }, 10000); // Poll every 10 seconds
+            const interval = setInterval(fetchWindow, 10000); // Poll every 10 seconds
 
             return () => clearInterval(interval);
         }
-    }, [customer, barberId, inQueue, wsStatus, fetchQueue, checkPosition]);
+    }, [customer, barberId, wsStatus, fetchWindow]);
 
     const handleJoinQueue = async () => {
         if (!customer || inQueue || isJoining) {
@@ -110,9 +87,7 @@ export const QueuePage = () => {
             const result = await joinApi.execute(() => joinQueue(barberId, customer.id));
             if (result) {
                 toast.success('Successfully joined the queue!');
-                setInQueue(true);
-                fetchQueue();
-                checkPosition();
+                fetchWindow();
             } else {
                 toast.error('Failed to join queue. Please try again.');
             }
@@ -120,9 +95,7 @@ export const QueuePage = () => {
             // Ignore 400 if already in queue
             if (error?.response?.status === 400) {
                 console.log('[Queue Page] Already in queue, ignoring error');
-                setInQueue(true);
-                fetchQueue();
-                checkPosition();
+                fetchWindow();
             } else {
                 toast.error('Failed to join queue. Please try again.');
             }
@@ -137,9 +110,7 @@ export const QueuePage = () => {
         const result = await leaveApi.execute(() => cancelSlot(barberId, customer.id));
         if (result) {
             toast.success('You have left the queue');
-            setInQueue(false);
-            setPosition(null);
-            fetchQueue();
+            fetchWindow();
         } else {
             toast.error('Failed to leave queue. Please try again.');
         }
@@ -149,6 +120,34 @@ export const QueuePage = () => {
         return null;
     }
 
+    const renderEntry = (entry: QueueEntry, index: number) => (
+        <div
+            key={entry.id}
+            className={`p-4 rounded border ${entry.customerId === customer.id
+                ? 'border-blue-500 bg-blue-50'
+                : 'border-gray-200'
+                }`}
+        >
+            <div className="flex items-center justify-between">
+                <div className="flex items-center gap-3">
+                    <span className="text-2xl font-bold text-gray-400">#{index + 1}</span>
+                    <div>
+                        <p className="font-medium">
+                            Customer #{entry.customerId}
+                            {entry.customerId === customer.id && (
+                                <span className="ml-2 text-blue-600">(You)</span>
+                            )}
+                        </p>
+                        <p className="text-sm text-gray-500">
+                            Joined {getRelativeTime(entry.createdAt)}
+                        </p>
+                    </div>
+                </div>
+                <Badge status={entry.status} />
+            </div>
+        </div>
+    );
+
     return (
         <Layout title="Queue Status">
             <div className="max-w-4xl mx-auto space-y-6">
@@ -169,20 +168,18 @@ export const QueuePage = () => {
                         </div>
                     ) : (
                         <div className="space-y-4">
-                            {positionApi.loading ? (
-                                <LoadingSpinner />
-                            ) : position ? (
+                            {self && queueWindow?.rank ? (
                                 <div className="bg-blue-50 p-4 rounded">
                                     <div className="flex items-center justify-between mb-2">
                                         <span className="text-lg font-semibold">Your Position:</span>
-                                        <span className="text-3xl font-bold text-blue-600">#{position.position}</span>
+                                        <span className="text-3xl font-bold text-blue-600">#{queueWindow.rank}</span>
                                     </div>
                                     <div className="flex items-center justify-between">
                                         <span className="text-sm text-gray-600">Estimated Wait:</span>
-                                        <span className="text-lg font-medium">{formatWaitTime(position.estimatedWaitTime)}</span>
+                                        <span className="text-lg font-medium">{formatWaitTime(queueWindow.estimatedWaitTime)}</span>
                                     </div>
                                     <div className="mt-2">
-                                        <Badge status={position.status} />
+                                        <Badge status={self.status} />
                                     </div>
                                 </div>
                             ) : null}
@@ -203,39 +200,21 @@ export const QueuePage = () => {
                 <Card>
                     <h3 className="text-lg font-bold mb-4">Current Queue</h3>
 
-                    {queueApi.loading ? (
+                    {windowApi.loading && !queueWindow ? (
                         <LoadingSpinner />
                     ) : queue.length === 0 ? (
                         <p className="text-gray-500 text-center py-8">No one in queue</p>
                     ) : (
                         <div className="space-y-3">
-                            {queue.map((entry, index) => (
-                                <div
-                                    key={entry.id}
-                                    className={`p-4 rounded border ${entry.customerId === customer.id
-                                        ? 'border-blue-500 bg-blue-50'
-                                        : 'border-gray-200'
-                                        }`}
-                                >
-                                    <div className="flex items-center justify-between">
-                                        <div className="flex items-center gap-3">
-                                            <span className="text-2xl font-bold text-gray-400">#{index + 1}</span>
-                                            <div>
-                                                <p className="font-medium">
-                                                    Customer #{entry.customerId}
-                                                    {entry.customerId === customer.id && (
-                                                        <span className="ml-2 text-blue-600">(You)</span>
-                                                    )}
-                                                </p>
-                                                <p className="text-sm text-gray-500">
-                                                    Joined {getRelativeTime(entry.createdAt)}
-                                                </p>
-                                            </div>
-                                        </div>
-                                        <Badge status={entry.status} />
-                                    </div>
-                                </div>
-                            ))}
+                            {queue.map(renderEntry)}
+                            {selfOutsideHead && self && (
+                                <>
+                                    <p className="text-center text-gray-400">
+                                        {(queueWindow?.rank ?? 0) - queue.length - 1} more ahead of you
+                                    </p>
+                                    {renderEntry(self, (queueWindow?.rank ?? 0) - 1)}
+                                </>
+                            )}
                         </div>
                     )}
                 </Card>
@@ -5,7 +5,7 @@
 
 import { api } from './api';
 import { API_ENDPOINTS } from '../constants';
-import type { QueueEntry, PositionResponse } from '../types';
+import type { QueueEntry, PositionResponse, QueueWindow } from '../types';
 
 /**
  * Customer joins the queue
@@ -40,6 +40,16 @@ export const getPosition = async (
     return response.data;
 };
 
+/**
+ * Get the head of the queue plus the customer's own entry and rank
+ */
+export const getQueueWindow = async (barberId: number, customerId: number): Promise<QueueWindow> => {
+    const response = await api.get<QueueWindow>(API_ENDPOINTS.QUEUE.GET_WINDOW, {
+        params: { barberId, customerId },
+    });
+    return response.data;
+};
+
 /**
  * Customer cancels their slot in the queue
  */
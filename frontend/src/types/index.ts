@@ -53,3 +53,14 @@ export interface PositionResponse {
     status: QueueStatus;
     estimatedWaitTime: number; // in minutes
 }
+
+// Queue Window (from GET /queue/window and /topic/barber/{id}/customer/{customerId})
+export interface QueueWindow {
+    barberId: number;
+    customerId: number;
+    head: QueueEntry[];
+    self: QueueEntry | null;
+    rank: number | null; // 1-based, null when not in the queue
+    activeCount: number;
+    estimatedWaitTime: number; // in minutes
+}